@@ -0,0 +1,303 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасный фасад над {@link CustomHashMap}, загружающий
+ * отсутствующие значения асинхронно.
+ *
+ * <p>Одновременные промахи по одному ключу объединяются: пока значение
+ * загружается, все вызовы {@link #getOrLoad} для этого ключа получают
+ * результат той же загрузки. {@link #getAllOrLoad} передает все промахи
+ * одним вызовом загрузчика.
+ *
+ * <p>Таблица защищается {@link ReentrantLock}, а не {@code synchronized},
+ * и блокировка никогда не удерживается во время загрузки, поэтому
+ * виртуальные потоки не закрепляются за потоком-носителем. Загрузчики
+ * выполняются на переданном {@link Executor}, например
+ * {@code Executors.newVirtualThreadPerTaskExecutor()}.
+ *
+ * <p>Значение, явно добавленное через {@link #put} или удаленное через
+ * {@link #remove} во время загрузки, не перезаписывается ее результатом.
+ * Если загрузка завершилась исключением, значение не сохраняется и следующий
+ * промах запустит загрузку заново.
+ *
+ * @param <K> тип ключа, поддерживаемого этой таблицей
+ * @param <V> тип сопоставимых значений
+ *
+ * @see CustomHashMap
+ */
+public class AsyncCustomHashMap<K,V> {
+    /**
+     * Таблица загруженных значений.
+     */
+    final CustomHashMap<K,V> map;
+    /**
+     * Загрузки, которые еще не завершились.
+     */
+    final CustomHashMap<K,CompletableFuture<V>> loading;
+    /**
+     * Блокировка, защищающая {@link #map} и {@link #loading}.
+     */
+    final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Исполнитель, на котором вызываются загрузчики.
+     */
+    final Executor executor;
+    /**
+     * Создает пустую {@code AsyncCustomHashMap}.
+     *
+     * @param executor исполнитель загрузчиков
+     * @throws NullPointerException если исполнитель равен null
+     */
+    public AsyncCustomHashMap(Executor executor) {
+        this(new CustomHashMap<>(), executor);
+    }
+    /**
+     * Создает {@code AsyncCustomHashMap} поверх указанной таблицы, например
+     * {@link ReferenceCustomHashMap}. После этого таблица не должна
+     * использоваться напрямую.
+     *
+     * @param map таблица загруженных значений
+     * @param executor исполнитель загрузчиков
+     * @throws NullPointerException если таблица или исполнитель равны null
+     */
+    public AsyncCustomHashMap(CustomHashMap<K,V> map, Executor executor) {
+        this.map = Objects.requireNonNull(map);
+        this.executor = Objects.requireNonNull(executor);
+        this.loading = new CustomHashMap<>(CustomHashMap.DEFAULT_INITIAL_CAPACITY,
+                CustomHashMap.DEFAULT_LOAD_FACTOR, map.equivalence);
+    }
+    /**
+     * Возвращает значение по ключу или {@code null}, не запуская загрузку.
+     */
+    public V get(Object key) {
+        lock.lock();
+        try {
+            return map.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Возвращает значение по ключу. Если значения нет, загружает его
+     * указанным загрузчиком, либо присоединяется к уже идущей загрузке
+     * этого ключа.
+     *
+     * @param key ключ
+     * @param loader загрузчик значения, вызывается на {@link #executor}
+     * @return future, завершаемое значением или исключением загрузчика.
+     */
+    public CompletableFuture<V> getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        Objects.requireNonNull(loader);
+        CompletableFuture<V> future;
+        int hash = map.hashOf(key); // у обеих таблиц одна стратегия сравнения ключей
+        lock.lock();
+        try {
+            CustomHashMap.Node<K,V> e;
+            if ((e = map.getNode(hash, key)) != null)
+                return CompletableFuture.completedFuture(e.getValue());
+            if ((future = loading.get(key, hash)) != null) // уже загружается
+                return future.copy();
+            loading.put(key, hash, future = new CompletableFuture<>());
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture<V> f = future;
+        execute(() -> {
+            V value;
+            try {
+                value = loader.apply(key);
+            } catch (Throwable t) {
+                fail(Collections.singletonMap(key, f), t);
+                return;
+            }
+            complete(key, f, value);
+        }, Collections.singletonMap(key, f));
+        return future.copy();
+    }
+    /**
+     * Возвращает значения по всем указанным ключам. Ключи, которые
+     * уже загружаются, присоединяются к своим загрузкам, а остальные
+     * промахи передаются загрузчику одним набором.
+     *
+     * <p>Ключи, отсутствующие в результате загрузчика, получают значение
+     * {@code null} и не сохраняются в таблице.
+     *
+     * @param keys ключи
+     * @param bulkLoader загрузчик значений для набора промахов
+     * @return future, завершаемое таблицей значений по всем ключам.
+     */
+    public CompletableFuture<Map<K,V>> getAllOrLoad(
+            Collection<? extends K> keys,
+            Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        Objects.requireNonNull(bulkLoader);
+        Map<K,V> found = new HashMap<>();
+        Map<K,CompletableFuture<V>> pending = new HashMap<>();
+        Map<K,CompletableFuture<V>> misses = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (K key : keys) {
+                CustomHashMap.Node<K,V> e;
+                CompletableFuture<V> future;
+                int hash = map.hashOf(key);
+                if ((e = map.getNode(hash, key)) != null)
+                    found.put(key, e.getValue());
+                else if ((future = loading.get(key, hash)) != null)
+                    pending.put(key, future);
+                else if (!misses.containsKey(key)) {
+                    loading.put(key, hash, future = new CompletableFuture<>());
+                    misses.put(key, future);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!misses.isEmpty()) {
+            pending.putAll(misses);
+            execute(() -> {
+                try {
+                    completeAll(misses, bulkLoader.apply(Collections.unmodifiableSet(misses.keySet())));
+                } catch (Throwable t) { // загрузки, уже завершенные completeAll, не затрагиваются
+                    fail(misses, t);
+                }
+            }, misses);
+        }
+        if (pending.isEmpty())
+            return CompletableFuture.completedFuture(found);
+        return CompletableFuture.allOf(pending.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    pending.forEach((key, future) -> found.put(key, future.join()));
+                    return found;
+                });
+    }
+    /**
+     * Сопоставляет значение с ключом. Загрузка этого ключа, если она идет,
+     * не перезапишет указанное значение.
+     *
+     * @return предыдущее значение или {@code null}.
+     */
+    public V put(K key, V value) {
+        lock.lock();
+        try {
+            loading.remove(key);
+            return map.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Удаляет значение по ключу. Загрузка этого ключа, если она идет,
+     * не сохранит свой результат.
+     *
+     * @return предыдущее значение или {@code null}.
+     */
+    public V remove(Object key) {
+        lock.lock();
+        try {
+            loading.remove(key);
+            return map.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * @return число загруженных пар ключ-значение.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    /**
+     * Запускает загрузку на {@link #executor}. Если исполнитель отклонил
+     * задачу, завершает указанные загрузки его исключением.
+     */
+    void execute(Runnable task, Map<K,CompletableFuture<V>> futures) {
+        try {
+            executor.execute(task);
+        } catch (Throwable t) {
+            fail(futures, t);
+        }
+    }
+    /**
+     * Сохраняет загруженное значение, если загрузка не была отменена
+     * через {@link #put} или {@link #remove}, и завершает future.
+     */
+    void complete(K key, CompletableFuture<V> future, V value) {
+        lock.lock();
+        try {
+            store(key, future, value);
+        } finally {
+            lock.unlock();
+        }
+        future.complete(value);
+    }
+    /**
+     * То же, что {@link #complete}, но для всех ключей групповой загрузки
+     * под одним захватом блокировки. Результат загрузчика разбирается
+     * до изменения таблицы, поэтому если он равен {@code null} или бросает
+     * исключение при поиске ключа, ни одна загрузка не снимается.
+     *
+     * @throws NullPointerException если результат загрузчика равен null
+     * или не допускает поиска некоторого ключа
+     */
+    void completeAll(Map<K,CompletableFuture<V>> futures, Map<? extends K, ? extends V> loaded) {
+        Objects.requireNonNull(loaded, "Bulk loader returned null");
+        Map<K,V> values = new HashMap<>();
+        futures.keySet().forEach(key -> {
+            if (loaded.containsKey(key))
+                values.put(key, loaded.get(key));
+        });
+        lock.lock();
+        try {
+            futures.forEach((key, future) -> {
+                if (values.containsKey(key))
+                    store(key, future, values.get(key));
+                else
+                    release(key, future);
+            });
+        } finally {
+            lock.unlock();
+        }
+        futures.forEach((key, future) -> future.complete(values.get(key)));
+    }
+    /**
+     * Завершает указанные загрузки исключением, ничего не сохраняя.
+     */
+    void fail(Map<K,CompletableFuture<V>> futures, Throwable t) {
+        lock.lock();
+        try {
+            futures.forEach(this::release);
+        } finally {
+            lock.unlock();
+        }
+        futures.values().forEach(future -> future.completeExceptionally(t));
+    }
+    /**
+     * Вызывается под блокировкой.
+     */
+    void store(K key, CompletableFuture<V> future, V value) {
+        if (release(key, future))
+            map.put(key, value);
+    }
+    /**
+     * Вызывается под блокировкой. Снимает регистрацию загрузки.
+     *
+     * @return {@code false} если загрузка уже была отменена.
+     */
+    boolean release(K key, CompletableFuture<V> future) {
+        CustomHashMap.Node<K,CompletableFuture<V>> e;
+        if ((e = loading.getNode(key)) == null || e.getValue() != future)
+            return false;
+        loading.remove(key);
+        return true;
+    }
+}
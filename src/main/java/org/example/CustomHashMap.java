@@ -71,10 +71,10 @@ public class CustomHashMap<K,V> {
 
         public K getKey()        { return key; }
         public V getValue()      { return value; }
-        public String toString() { return key + "=" + value; }
+        public String toString() { return getKey() + "=" + getValue(); }
 
         public int hashCode() {
-            return Objects.hashCode(key) & Objects.hashCode(value);
+            return Objects.hashCode(getKey()) & Objects.hashCode(getValue());
         }
 
         public V setValue(V newValue) {
@@ -88,19 +88,55 @@ public class CustomHashMap<K,V> {
                 return true;
 
             return o instanceof Map.Entry<?, ?> e
-                    && Objects.equals(key, e.getKey())
-                    && Objects.equals(value, e.getValue());
+                    && Objects.equals(getKey(), e.getKey())
+                    && Objects.equals(getValue(), e.getValue());
         }
     }
     /**
-     * Вычисляет key.hashCode() и распространяет более высокие биты
-     * хэша на более низкие. Так как в таблице используется битовая маска -
-     * степень двойки для вычисления текущей ячейки таблицы, то
-     * значения хэшей, которые отличаются лишь старшими битами будут постоянно
-     * сталкиваться.
+     * Распространяет более высокие биты хэша на более низкие.
+     * Так как в таблице используется битовая маска - степень двойки
+     * для вычисления текущей ячейки таблицы, то значения хэшей, которые
+     * отличаются лишь старшими битами будут постоянно сталкиваться.
      */
-    static int hash(Object key) {
-        return (key == null) ? 0 : key.hashCode() >>> 16 & key.hashCode();
+    static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+    /**
+     * Вычисляет хэш ключа так же, как это делают {@code get}, {@code put}
+     * и {@code remove}. Результат можно передать в их перегрузки с
+     * параметром {@code hash}, чтобы не хэшировать ключ повторно, в том числе
+     * в других таблицах с той же {@link Equivalence}.
+     *
+     * @param key ключ
+     * @return хэш ключа для этой таблицы.
+     */
+    public int hashOf(Object key) {
+        return (key == null) ? 0 : spread(equivalence.hash(key));
+    }
+    /**
+     * Проверяет, что ключ элемента таблицы совпадает с указанным ключом.
+     * Вызывается только после совпадения хэшей.
+     *
+     * @param e элемент таблицы
+     * @param key искомый ключ
+     * @return {@code true} если ключи равны.
+     */
+    boolean keyMatches(CustomHashMap.Node<K,V> e, Object key) {
+        K k;
+        return (k = e.key) == key ||
+                (key != null && k != null && equivalence.equivalent(key, k));
+    }
+    /**
+     * Создает множество для ключей или элементов этой таблицы.
+     * {@link HashSet} используется только для {@link Equivalence#equality()}.
+     * Стратегия, различающая ключи, равные по {@code equals}, допускает их
+     * одновременно в таблице, и {@link HashSet} склеил бы такие ключи,
+     * поэтому для остальных стратегий множество сравнивает объекты по ссылке.
+     */
+    <T> Set<T> newSet(int capacity) {
+        return equivalence == Equivalence.equality() ?
+                new HashSet<>(capacity) :
+                Collections.newSetFromMap(new IdentityHashMap<>(capacity));
     }
     /**
      * Возвращает степень двойки для заданной емкости.
@@ -116,6 +152,77 @@ public class CustomHashMap<K,V> {
 
         return Math.min(mask, MAXIMUM_CAPACITY);
     }
+    /**
+     * Возвращает начальную емкость, при которой таблица вмещает
+     * указанное число элементов без перехеширования.
+     */
+    static int capacityFor(int expectedSize, float loadFactor) {
+        double dt = Math.ceil(expectedSize / (double)loadFactor);
+        return ((dt < (double)MAXIMUM_CAPACITY) ?
+                (int)dt : MAXIMUM_CAPACITY);
+    }
+    /**
+     * Размер заголовка объекта и ссылки в байтах для 64-битной JVM
+     * со сжатыми указателями. Объекты выравниваются по 8 байт.
+     */
+    static final int OBJECT_HEADER_BYTES = 12, ARRAY_HEADER_BYTES = 16, REFERENCE_BYTES = 4;
+    /**
+     * Размер {@link Node}: заголовок, hash и три ссылки.
+     */
+    static final int NODE_BYTES = (int)align(OBJECT_HEADER_BYTES + 4 + 3 * REFERENCE_BYTES);
+    /**
+     * Размер самой таблицы без массива: заголовок, две ссылки и три поля по 4 байта.
+     */
+    static final int MAP_BYTES = (int)align(OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES + 3 * 4);
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+    /**
+     * Оценивает объем памяти, который займет {@code CustomHashMap} с указанным
+     * числом элементов, созданная через {@link #withExpectedSize(int)} или
+     * заполненная после {@link #ensureCapacity(int)}.
+     *
+     * <p>Учитываются сама таблица, массив ячеек и элементы {@link Node}.
+     * Для ключей-оберток примитивов ({@code Integer}, {@code Long} и т.п.)
+     * добавляется размер объекта ключа, кэшированные значения не вычитаются.
+     * Объекты ключей других типов и значения не учитываются, так как их размер
+     * известен только вызывающему. Оценка рассчитана на 64-битную JVM
+     * со сжатыми указателями.
+     *
+     * @param expectedSize ожидаемое число элементов
+     * @param loadFactor коэффициент загрузки
+     * @param keyType тип ключа или {@code null}, если ключи не нужно учитывать
+     * @return оценка в байтах
+     * @throws IllegalArgumentException если число элементов отрицательное
+     * или коэффициент загрузки не положительный.
+     */
+    public static long estimateFootprint(int expectedSize, float loadFactor, Class<?> keyType) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Negative number of elements: " +
+                    expectedSize);
+        if (loadFactor <= 0 || Float.isNaN(loadFactor))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                    loadFactor);
+        long bytes = MAP_BYTES;
+        if (expectedSize > 0) {
+            int capacity = tableSizeFor(capacityFor(expectedSize, loadFactor));
+            bytes += align(ARRAY_HEADER_BYTES + (long)capacity * REFERENCE_BYTES);
+            bytes += (long)expectedSize * (NODE_BYTES + boxedSize(keyType));
+        }
+        return bytes;
+    }
+    /**
+     * @return размер объекта-обертки примитива или 0 для других типов.
+     */
+    static int boxedSize(Class<?> type) {
+        if (type == Long.class || type == Double.class)
+            return (int)align(OBJECT_HEADER_BYTES + 8);
+        if (type == Integer.class || type == Float.class || type == Short.class ||
+                type == Character.class || type == Byte.class || type == Boolean.class)
+            return (int)align(OBJECT_HEADER_BYTES + 4);
+        return 0;
+    }
     /**
      * Таблица, инициализируемая при первом использовании
      * и изменяющая размер по необходимости.
@@ -135,13 +242,17 @@ public class CustomHashMap<K,V> {
      * Коэффициент загрузки для текущей таблицы.
      */
     final float loadFactor;
+    /**
+     * Стратегия сравнения и хэширования ключей.
+     */
+    final Equivalence<Object> equivalence;
     /**
      * Создает пустую {@code CustomHashMap} с указанной начальной емкостью
      * и коэффициентом загрузки.
      *
      * @apiNote
      * Чтобы создать {@code CustomHashMap} с начальной емкостью, которая
-     * вмещает ожидаемое число пар, используйте {@link #CustomHashMap(int) newCustomHashMap}.
+     * вмещает ожидаемое число пар, используйте {@link #withExpectedSize(int) withExpectedSize}.
      *
      * @param  initialCapacity начальная емкость
      * @param  loadFactor      коэффициент загрузки
@@ -149,6 +260,21 @@ public class CustomHashMap<K,V> {
      * или коэффициент загрузки не положительный.
      */
     public CustomHashMap(int initialCapacity, float loadFactor) {
+        this(initialCapacity, loadFactor, Equivalence.equality());
+    }
+    /**
+     * Создает пустую {@code CustomHashMap} с указанной начальной емкостью,
+     * коэффициентом загрузки и стратегией сравнения ключей.
+     *
+     * @param  initialCapacity начальная емкость
+     * @param  loadFactor      коэффициент загрузки
+     * @param  equivalence     стратегия сравнения и хэширования ключей
+     * @throws IllegalArgumentException если начальная емкость отрицательная
+     * или коэффициент загрузки не положительный.
+     * @throws NullPointerException если стратегия равна null
+     */
+    @SuppressWarnings("unchecked")
+    public CustomHashMap(int initialCapacity, float loadFactor, Equivalence<? super K> equivalence) {
         if (initialCapacity < 0)
             throw new IllegalArgumentException("Illegal initial capacity: " +
                     initialCapacity);
@@ -158,6 +284,7 @@ public class CustomHashMap<K,V> {
             throw new IllegalArgumentException("Illegal load factor: " +
                     loadFactor);
         this.loadFactor = loadFactor;
+        this.equivalence = (Equivalence<Object>) Objects.requireNonNull(equivalence);
         this.threshold = tableSizeFor(initialCapacity);
     }
     /**
@@ -176,6 +303,7 @@ public class CustomHashMap<K,V> {
      */
     public CustomHashMap() {
         this.loadFactor = DEFAULT_LOAD_FACTOR;
+        this.equivalence = Equivalence.equality();
     }
     /**
      * Создает новую {@code CustomHashMap} с теми же элементами, что
@@ -188,8 +316,52 @@ public class CustomHashMap<K,V> {
      */
     public CustomHashMap(Map<? extends K, ? extends V> m) {
         this.loadFactor = DEFAULT_LOAD_FACTOR;
+        this.equivalence = Equivalence.equality();
         putMapEntries(m);
     }
+    /**
+     * Создает пустую {@code CustomHashMap}, которая вмещает указанное число
+     * элементов без перехеширования, со значением коэффициента загрузки
+     * по умолчанию (0.75).
+     *
+     * @apiNote
+     * Конструктор {@link #CustomHashMap(int)} принимает емкость, а не число
+     * элементов: {@code new CustomHashMap<>(n)} перехеширует таблицу после
+     * добавления {@code 0.75 * n} элементов.
+     *
+     * @param expectedSize ожидаемое число элементов
+     * @param <K> тип ключа
+     * @param <V> тип значения
+     * @return новая таблица
+     * @throws IllegalArgumentException если число элементов отрицательное
+     */
+    public static <K,V> CustomHashMap<K,V> withExpectedSize(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Negative number of elements: " +
+                    expectedSize);
+        return new CustomHashMap<>(capacityFor(expectedSize, DEFAULT_LOAD_FACTOR));
+    }
+    /**
+     * Увеличивает емкость таблицы так, чтобы она вмещала указанное число
+     * элементов без перехеширования. Если таблица уже создана, она
+     * увеличивается за один проход, а не удвоением в несколько шагов.
+     *
+     * @param expectedSize ожидаемое общее число элементов
+     * @throws IllegalArgumentException если число элементов отрицательное
+     */
+    public void ensureCapacity(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Negative number of elements: " +
+                    expectedSize);
+        if (expectedSize == 0)
+            return;
+        int t = capacityFor(expectedSize, loadFactor);
+        if (table == null) {
+            if (t > threshold)
+                threshold = tableSizeFor(t);
+        } else if (expectedSize > threshold && table.length < MAXIMUM_CAPACITY)
+            transfer(tableSizeFor(t));
+    }
     /**
      * Помещает все элементы указанной таблицы в текущую таблицу.
      *
@@ -198,21 +370,12 @@ public class CustomHashMap<K,V> {
     void putMapEntries(Map<? extends K, ? extends V> m) {
         int s = m.size();
         if (s > 0) {
-            if (table == null) {
-                double dt = Math.ceil(s / (double)loadFactor);
-                int t = ((dt < (double)MAXIMUM_CAPACITY) ?
-                        (int)dt : MAXIMUM_CAPACITY);
-                if (t > threshold)
-                    threshold = tableSizeFor(t);
-            } else {
-                while (s > threshold && table.length < MAXIMUM_CAPACITY)
-                    resize();
-            }
+            ensureCapacity(s);
 
             for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
                 K key = e.getKey();
                 V value = e.getValue();
-                putVal(hash(key), key, value);
+                putVal(hashOf(key), key, value);
             }
         }
     }
@@ -246,25 +409,42 @@ public class CustomHashMap<K,V> {
      */
     public V get(Object key) {
         CustomHashMap.Node<K,V> e;
-        return (e = getNode(key)) == null ? null : e.value;
+        return (e = getNode(hashOf(key), key)) == null ? null : e.getValue();
+    }
+    /**
+     * То же, что {@link #get(Object)}, но с заранее вычисленным хэшем ключа.
+     *
+     * @param key ключ
+     * @param hash хэш ключа, полученный из {@link #hashOf(Object)}
+     * @return значение или {@code null}. Если хэш не соответствует ключу,
+     * значение не будет найдено.
+     */
+    public V get(Object key, int hash) {
+        CustomHashMap.Node<K,V> e;
+        return (e = getNode(hash, key)) == null ? null : e.getValue();
     }
     /**
      * @param key ключ
      * @return ячейку или null при отсутствии.
      */
     CustomHashMap.Node<K,V> getNode(Object key) {
+        return getNode(hashOf(key), key);
+    }
+    /**
+     * @param hash хэш ключа
+     * @param key ключ
+     * @return ячейку или null при отсутствии.
+     */
+    CustomHashMap.Node<K,V> getNode(int hash, Object key) {
         CustomHashMap.Node<K,V> first, e;
-        int tableLength, hash;
-        K k;
+        int tableLength;
         if (table != null && (tableLength = table.length) > 0 &&
-                (first = table[(tableLength - 1) & (hash = hash(key))]) != null) { //чаще всего 1 элемент в ячейке
-            if (first.hash == hash &&
-                    ((k = first.key) == key || (key != null && key.equals(k))))
+                (first = table[(tableLength - 1) & hash]) != null) { //чаще всего 1 элемент в ячейке
+            if (first.hash == hash && keyMatches(first, key))
                 return first;
             if ((e = first.next) != null) {
                 do {
-                    if (e.hash == hash &&
-                            ((k = e.key) == key || (key != null && key.equals(k))))
+                    if (e.hash == hash && keyMatches(e, key))
                         return e;
                 } while ((e = e.next) != null);
             }
@@ -280,7 +460,18 @@ public class CustomHashMap<K,V> {
      * указанного ключа.
      */
     public boolean containsKey(Object key) {
-        return getNode(key) != null;
+        return getNode(hashOf(key), key) != null;
+    }
+    /**
+     * То же, что {@link #containsKey(Object)}, но с заранее вычисленным хэшем ключа.
+     *
+     * @param key ключ
+     * @param hash хэш ключа, полученный из {@link #hashOf(Object)}
+     * @return {@code true} если данная таблица содержит значение для
+     * указанного ключа.
+     */
+    public boolean containsKey(Object key, int hash) {
+        return getNode(hash, key) != null;
     }
     /**
      * Сопоставляет указанное значение с указанным ключом в таблице.
@@ -296,7 +487,20 @@ public class CustomHashMap<K,V> {
      *         связанное с ключом {@code key}.)
      */
     public V put(K key, V value) {
-        return putVal(hash(key), key, value);
+        return putVal(hashOf(key), key, value);
+    }
+    /**
+     * То же, что {@link #put(Object, Object)}, но с заранее вычисленным хэшем ключа.
+     *
+     * @param key ключ с которым сопоставляется указанное значение
+     * @param hash хэш ключа, полученный из {@link #hashOf(Object)}.
+     *             Неверный хэш сделает элемент недоступным для поиска.
+     * @param value значение с которым сопоставляется указанный ключ
+     * @return предыдущее значение, связанное с {@code key}, или
+     *         {@code null} нет связанного значения с {@code key}.
+     */
+    public V put(K key, int hash, V value) {
+        return putVal(hash, key, value);
     }
     /**
      * @param hash хэш ключа
@@ -313,9 +517,8 @@ public class CustomHashMap<K,V> {
         if ((p = tab[i = (tableLength - 1) & hash]) == null) // ячейка пустая
             tab[i] = newNode(hash, key, value, null);
         else {
-            CustomHashMap.Node<K,V> e; K k;
-            if (p.hash == hash && // первый элемент совпал
-                    ((k = p.key) == key || (key != null && key.equals(k))))
+            CustomHashMap.Node<K,V> e;
+            if (p.hash == hash && keyMatches(p, key)) // первый элемент совпал
                 e = p;
             else { // идем по цепочке
                 while (true) {
@@ -324,17 +527,13 @@ public class CustomHashMap<K,V> {
                         p.next = newNode(hash, key, value, null);
                         break;
                     }
-                    if (e.hash == hash &&
-                            ((k = e.key) == key || (key != null && key.equals(k))))
+                    if (e.hash == hash && keyMatches(e, key))
                         break;
                     p = e;
                 }
             }
-            if (e != null) { // такой ключ существует
-                V oldValue = e.value;
-                e.value = value;
-                return oldValue;
-            }
+            if (e != null) // такой ключ существует
+                return e.setValue(value);
         }
         if (++size > threshold)
             resize();
@@ -369,13 +568,7 @@ public class CustomHashMap<K,V> {
             newCap = DEFAULT_INITIAL_CAPACITY;
             newThr = (int)(DEFAULT_LOAD_FACTOR * DEFAULT_INITIAL_CAPACITY);
         }
-        if (newThr == 0) { // надо рассчитать новую threshold, используя заданный размер
-            float ft = (float)newCap * loadFactor;
-            newThr = (newCap < MAXIMUM_CAPACITY && ft < (float)MAXIMUM_CAPACITY ?
-                    (int)ft : Integer.MAX_VALUE);
-        }
-        threshold = newThr;
-        CustomHashMap.Node<K,V>[] newTab = (CustomHashMap.Node<K,V>[])new CustomHashMap.Node[newCap];
+        CustomHashMap.Node<K,V>[] newTab = newTable(newCap, newThr);
         table = newTab;
         if (oldTab != null) {
             for (int j = 0; j < oldCap; ++j) {
@@ -419,6 +612,45 @@ public class CustomHashMap<K,V> {
         }
         return newTab;
     }
+    /**
+     * Выделяет массив ячеек указанной емкости и устанавливает {@link #threshold}.
+     *
+     * @param newCap новая емкость
+     * @param newThr новое значение threshold, или 0 чтобы рассчитать его
+     *               по емкости и коэффициенту загрузки
+     * @return новый массив ячеек
+     */
+    @SuppressWarnings({"rawtypes","unchecked"})
+    CustomHashMap.Node<K,V>[] newTable(int newCap, int newThr) {
+        if (newThr == 0) { // надо рассчитать новую threshold, используя заданный размер
+            float ft = (float)newCap * loadFactor;
+            newThr = (newCap < MAXIMUM_CAPACITY && ft < (float)MAXIMUM_CAPACITY ?
+                    (int)ft : Integer.MAX_VALUE);
+        }
+        threshold = newThr;
+        return (CustomHashMap.Node<K,V>[])new CustomHashMap.Node[newCap];
+    }
+    /**
+     * Переносит элементы в новую таблицу указанной емкости за один проход.
+     * В отличие от {@link #resize()}, емкость может вырасти сразу в несколько раз,
+     * поэтому порядок элементов в ячейке не сохраняется.
+     *
+     * @param newCap новая емкость, степень двойки больше текущей
+     */
+    void transfer(int newCap) {
+        CustomHashMap.Node<K,V>[] oldTab = table;
+        CustomHashMap.Node<K,V>[] newTab = newTable(newCap, 0);
+        for (CustomHashMap.Node<K,V> e : oldTab) {
+            CustomHashMap.Node<K,V> next;
+            for (; e != null; e = next) {
+                next = e.next;
+                int index = e.hash & (newCap - 1);
+                e.next = newTab[index];
+                newTab[index] = e;
+            }
+        }
+        table = newTab;
+    }
     /**
      * Копирует все элементы из указанной таблицы в текущую.
      * Новые элементы заменят любые элементы, хранимые до этого
@@ -441,8 +673,21 @@ public class CustomHashMap<K,V> {
      */
     public V remove(Object key) {
         CustomHashMap.Node<K,V> e;
-        return (e = removeNode(hash(key), key)) == null ?
-                null : e.value;
+        return (e = removeNode(hashOf(key), key)) == null ?
+                null : e.getValue();
+    }
+    /**
+     * То же, что {@link #remove(Object)}, но с заранее вычисленным хэшем ключа.
+     *
+     * @param key ключ, значение по которому должно быть удалено.
+     * @param hash хэш ключа, полученный из {@link #hashOf(Object)}
+     * @return предыдущее значение, связанное с {@code key}, или
+     *         {@code null} если значение отсутствует {@code key}.
+     */
+    public V remove(Object key, int hash) {
+        CustomHashMap.Node<K,V> e;
+        return (e = removeNode(hash, key)) == null ?
+                null : e.getValue();
     }
     /**     *
      * @param hash хэш ключа
@@ -453,15 +698,12 @@ public class CustomHashMap<K,V> {
         CustomHashMap.Node<K,V>[] tab; CustomHashMap.Node<K,V> p; int n, index;
         if ((tab = table) != null && (n = tab.length) > 0 &&
                 (p = tab[index = (n - 1) & hash]) != null) {
-            CustomHashMap.Node<K,V> node = null, e; K k; V v;
-            if (p.hash == hash &&
-                    ((k = p.key) == key || (key != null && key.equals(k))))
+            CustomHashMap.Node<K,V> node = null, e;
+            if (p.hash == hash && keyMatches(p, key))
                 node = p;
             else if ((e = p.next) != null) {
                 do {
-                    if (e.hash == hash &&
-                            ((k = e.key) == key ||
-                                    (key != null && key.equals(k)))) {
+                    if (e.hash == hash && keyMatches(e, key)) {
                         node = e;
                         break;
                     }
@@ -474,6 +716,7 @@ public class CustomHashMap<K,V> {
                 else
                     p.next = node.next;
                 --size;
+                afterNodeRemoval(node);
                 return node;
             }
         }
@@ -502,7 +745,7 @@ public class CustomHashMap<K,V> {
         if ((tab = table) != null && size > 0) {
             for (CustomHashMap.Node<K,V> e : tab) {
                 for (; e != null; e = e.next) {
-                    if ((v = e.value) == value ||
+                    if ((v = e.getValue()) == value ||
                             (value != null && value.equals(v)))
                         return true;
                 }
@@ -511,13 +754,19 @@ public class CustomHashMap<K,V> {
         return false;
     }
     /**
+     * Возвращает копию ключей таблицы. Если ключи сравниваются не через
+     * {@link Equivalence#equality()}, копия сравнивает их по ссылке,
+     * а не через {@link Equivalence} таблицы: например, для
+     * {@link Equivalence#byteArrays()} ее {@code contains} не найдет
+     * равный по содержимому массив.
+     *
      * @return Set, состоящий из ключей заданной таблицы.
      */
     public Set<K> keySet() {
-        Set<K> keySet = new HashSet<K>(table.length);
+        Set<K> keySet = newSet(table.length);
         for (CustomHashMap.Node<K, V> e : table) {
             for (; e != null; e = e.next) {
-                keySet.add(e.key);
+                keySet.add(e.getKey());
             }
         }
         return keySet;
@@ -529,16 +778,20 @@ public class CustomHashMap<K,V> {
         Collection<V> values = new ArrayList<V>(table.length);
         for (CustomHashMap.Node<K, V> e : table) {
             for (; e != null; e = e.next) {
-                values.add(e.value);
+                values.add(e.getValue());
             }
         }
         return values;
     }
     /**
+     * Возвращает копию элементов таблицы. Как и в {@link #keySet()}, если ключи
+     * сравниваются не через {@link Equivalence#equality()}, копия сравнивает
+     * элементы по ссылке.
+     *
      * @return Set, состоящий из элементов (пар ключ-значение) заданной таблицы.
      */
     public Set<Map.Entry<K, V>> entrySet() {
-        Set<Map.Entry<K, V>> keySet = new HashSet<>(table.length);
+        Set<Map.Entry<K, V>> keySet = newSet(table.length);
         for (CustomHashMap.Node<K, V> e : table) {
             for (; e != null; e = e.next) {
                 keySet.add(e);
@@ -552,4 +805,16 @@ public class CustomHashMap<K,V> {
     CustomHashMap.Node<K,V> newNode(int hash, K key, V value, CustomHashMap.Node<K,V> next) {
         return new CustomHashMap.Node<>(hash, key, value, next);
     }
+    /**
+     * Вызывается после удаления элемента из таблицы, кроме {@link #clear()}.
+     * Позволяет наследникам поддерживать собственные структуры в согласии с таблицей.
+     */
+    void afterNodeRemoval(CustomHashMap.Node<K,V> e) { }
+    /**
+     * Возвращает {@code false} если элемент еще лежит в таблице, но уже
+     * не виден пользователю, например его ключ очищен сборщиком мусора.
+     */
+    boolean isLive(CustomHashMap.Node<K,V> e) {
+        return true;
+    }
 }
@@ -0,0 +1,299 @@
+package org.example;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+
+/**
+ * Компактный потоковый двоичный формат для передачи {@link CustomHashMap}
+ * между процессами.
+ *
+ * <p>Элементы записываются прямо из таблицы, без промежуточных коллекций
+ * и без стандартной сериализации Java. Ключи и значения кодируются
+ * переданными {@link ElementCodec}. Элементы, уже очищенные сборщиком мусора
+ * (см. {@link ReferenceCustomHashMap}), не записываются. При чтении таблица
+ * сразу создается нужной емкости, поэтому для таблиц до {@link #MAX_PRESIZE}
+ * элементов во время загрузки {@code resize()} не вызывается. Большие таблицы
+ * растут обычным образом, чтобы поврежденный заголовок не заставил
+ * выделить огромный массив до чтения первого элемента.
+ *
+ * <p>Формат: {@code int} число элементов, {@code float} коэффициент загрузки
+ * не меньше {@link #MIN_LOAD_FACTOR}, затем для каждого элемента байт флагов
+ * ({@link #NULL_KEY}, {@link #NULL_VALUE}), ключ и значение, если они не {@code null}.
+ *
+ * <p>Перегрузки для каналов используют буфер фиксированного размера,
+ * поэтому помимо самой таблицы расходуют ограниченный объем памяти.
+ * Буфер чтения передается вызывающим кодом: байты, прочитанные из канала
+ * после конца таблицы, остаются в нем для следующего чтения, так что
+ * по одному каналу можно передавать несколько таблиц подряд.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ *
+ * @see CustomHashMap
+ */
+public class CustomHashMapCodec<K,V> {
+    /**
+     * Кодирование ключей или значений. Методы никогда не получают
+     * и не возвращают {@code null}: такие ключи и значения отмечаются флагами.
+     *
+     * @param <T> тип кодируемых объектов
+     */
+    public interface ElementCodec<T> {
+        void write(DataOutput out, T value) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+
+    public static final ElementCodec<Integer> INTEGERS = new ElementCodec<>() {
+        public void write(DataOutput out, Integer value) throws IOException { out.writeInt(value); }
+        public Integer read(DataInput in) throws IOException               { return in.readInt(); }
+    };
+
+    public static final ElementCodec<Long> LONGS = new ElementCodec<>() {
+        public void write(DataOutput out, Long value) throws IOException { out.writeLong(value); }
+        public Long read(DataInput in) throws IOException               { return in.readLong(); }
+    };
+
+    /**
+     * Массивы байтов с префиксом длины.
+     */
+    public static final ElementCodec<byte[]> BYTE_ARRAYS = new ElementCodec<>() {
+        public void write(DataOutput out, byte[] value) throws IOException {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+
+        public byte[] read(DataInput in) throws IOException {
+            int length = in.readInt();
+            if (length < 0)
+                throw new StreamCorruptedException("Illegal length: " + length);
+            byte[] value = new byte[length];
+            in.readFully(value);
+            return value;
+        }
+    };
+
+    /**
+     * Строки в UTF-8 с префиксом длины. В отличие от {@link DataOutput#writeUTF},
+     * не ограничивает длину строки.
+     */
+    public static final ElementCodec<String> STRINGS = new ElementCodec<>() {
+        public void write(DataOutput out, String value) throws IOException {
+            BYTE_ARRAYS.write(out, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public String read(DataInput in) throws IOException {
+            return new String(BYTE_ARRAYS.read(in), StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Флаг элемента с ключом {@code null}.
+     */
+    static final int NULL_KEY = 1;
+    /**
+     * Флаг элемента со значением {@code null}.
+     */
+    static final int NULL_VALUE = 1 << 1;
+    /**
+     * Размер буфера при чтении и записи через каналы.
+     */
+    static final int BUFFER_SIZE = 8192;
+    /**
+     * Наибольшее число элементов, под которое таблица выделяется заранее
+     * по заголовку потока.
+     */
+    static final int MAX_PRESIZE = 1 << 16;
+    /**
+     * Наименьший коэффициент загрузки прочитанной таблицы. При меньших
+     * значениях таблица растет много быстрее числа прочитанных элементов.
+     */
+    static final float MIN_LOAD_FACTOR = 1f / 16;
+
+    final ElementCodec<K> keyCodec;
+    final ElementCodec<V> valueCodec;
+    /**
+     * Стратегия сравнения ключей прочитанных таблиц.
+     */
+    final Equivalence<? super K> equivalence;
+    /**
+     * Создает кодек, читающий таблицы, которые сравнивают ключи через {@code equals}.
+     *
+     * @param keyCodec кодирование ключей
+     * @param valueCodec кодирование значений
+     * @throws NullPointerException если один из аргументов равен null
+     */
+    public CustomHashMapCodec(ElementCodec<K> keyCodec, ElementCodec<V> valueCodec) {
+        this(keyCodec, valueCodec, Equivalence.equality());
+    }
+    /**
+     * Создает кодек, читающий таблицы с указанной стратегией сравнения ключей.
+     *
+     * @param keyCodec кодирование ключей
+     * @param valueCodec кодирование значений
+     * @param equivalence стратегия сравнения ключей прочитанных таблиц
+     * @throws NullPointerException если один из аргументов равен null
+     */
+    public CustomHashMapCodec(ElementCodec<K> keyCodec, ElementCodec<V> valueCodec,
+                              Equivalence<? super K> equivalence) {
+        this.keyCodec = Objects.requireNonNull(keyCodec);
+        this.valueCodec = Objects.requireNonNull(valueCodec);
+        this.equivalence = Objects.requireNonNull(equivalence);
+    }
+    /**
+     * Записывает таблицу в канал. Канал не закрывается.
+     *
+     * @param map таблица
+     * @param channel канал в блокирующем режиме
+     * @throws IOException при ошибке записи
+     */
+    public void write(CustomHashMap<K,V> map, WritableByteChannel channel) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        write(map, (DataOutput) out);
+        out.flush();
+    }
+    /**
+     * Записывает таблицу.
+     *
+     * @param map таблица
+     * @param out приемник
+     * @throws IOException при ошибке записи
+     * @throws ConcurrentModificationException если элемент был очищен
+     * сборщиком мусора после подсчета, и записанное число элементов
+     * не совпало с заголовком
+     */
+    public void write(CustomHashMap<K,V> map, DataOutput out) throws IOException {
+        CustomHashMap.Node<K,V>[] tab = map.table;
+        int count = 0;
+        if (tab != null) {
+            for (CustomHashMap.Node<K,V> e : tab) {
+                for (; e != null; e = e.next) {
+                    if (map.isLive(e))
+                        count++;
+                }
+            }
+        }
+        out.writeInt(count);
+        out.writeFloat(map.loadFactor);
+        int written = 0;
+        if (tab != null) {
+            for (CustomHashMap.Node<K,V> e : tab) {
+                for (; e != null && written < count; e = e.next) {
+                    K key = e.getKey(); // локальные ссылки не дают очистить элемент до записи
+                    V value = e.getValue();
+                    if (!map.isLive(e))
+                        continue;
+                    written++;
+                    out.writeByte((key == null ? NULL_KEY : 0) | (value == null ? NULL_VALUE : 0));
+                    if (key != null)
+                        keyCodec.write(out, key);
+                    if (value != null)
+                        valueCodec.write(out, value);
+                }
+            }
+        }
+        if (written != count)
+            throw new ConcurrentModificationException("Entries reclaimed while writing: " +
+                    written + " of " + count);
+    }
+    /**
+     * Создает пустой буфер для {@link #read(ReadableByteChannel, ByteBuffer)}.
+     *
+     * @return буфер размера {@link #BUFFER_SIZE} в режиме чтения
+     */
+    public static ByteBuffer newBuffer() {
+        return ByteBuffer.allocate(BUFFER_SIZE).limit(0);
+    }
+    /**
+     * Читает таблицу из канала. Сначала используются байты, оставшиеся
+     * в буфере, затем буфер пополняется из канала. После возврата буфер
+     * содержит байты, прочитанные после конца таблицы; его нужно передать
+     * в следующий вызов для того же канала. Канал не закрывается.
+     *
+     * @param channel канал в блокирующем режиме
+     * @param buffer буфер в режиме чтения, например {@link #newBuffer()}
+     * @return прочитанная таблица
+     * @throws IOException при ошибке чтения или поврежденных данных
+     */
+    public CustomHashMap<K,V> read(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        return read((DataInput) new DataInputStream(new ChannelInput(channel, buffer)));
+    }
+    /**
+     * Читает таблицу.
+     *
+     * @param in источник
+     * @return прочитанная таблица
+     * @throws IOException при ошибке чтения или поврежденных данных
+     */
+    public CustomHashMap<K,V> read(DataInput in) throws IOException {
+        int size = in.readInt();
+        float loadFactor = in.readFloat();
+        if (size < 0)
+            throw new StreamCorruptedException("Illegal size: " + size);
+        if (!(loadFactor >= MIN_LOAD_FACTOR)) // также отсекает NaN
+            throw new StreamCorruptedException("Illegal load factor: " + loadFactor);
+        int capacity = Math.min(CustomHashMap.capacityFor(Math.min(size, MAX_PRESIZE), loadFactor),
+                CustomHashMap.tableSizeFor(MAX_PRESIZE));
+        CustomHashMap<K,V> map = new CustomHashMap<>(capacity, loadFactor, equivalence);
+        for (int i = 0; i < size; i++) {
+            int flags = in.readUnsignedByte();
+            if ((flags & ~(NULL_KEY | NULL_VALUE)) != 0)
+                throw new StreamCorruptedException("Illegal flags: " + flags);
+            K key = (flags & NULL_KEY) != 0 ? null : keyCodec.read(in);
+            V value = (flags & NULL_VALUE) != 0 ? null : valueCodec.read(in);
+            map.putVal(map.hashOf(key), key, value);
+        }
+        return map;
+    }
+    /**
+     * Поток, читающий из канала через буфер вызывающего кода
+     * и не теряющий непрочитанные байты.
+     */
+    static final class ChannelInput extends InputStream {
+        final ReadableByteChannel channel;
+        final ByteBuffer buffer;
+
+        ChannelInput(ReadableByteChannel channel, ByteBuffer buffer) {
+            this.channel = Objects.requireNonNull(channel);
+            this.buffer = Objects.requireNonNull(buffer);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0)
+                return 0;
+            if (!fill())
+                return -1;
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        /**
+         * @return {@code false} если буфер пуст и канал закончился.
+         */
+        boolean fill() throws IOException {
+            while (!buffer.hasRemaining()) {
+                buffer.clear();
+                int n = channel.read(buffer);
+                buffer.flip();
+                if (n < 0)
+                    return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Стратегия сравнения и хэширования ключей {@link CustomHashMap}.
+ * Позволяет сравнивать ключи по содержимому там, где {@code equals}
+ * и {@code hashCode} для этого не подходят, например для {@code byte[]},
+ * без создания объектов-оберток.
+ *
+ * <p>Таблица сама обрабатывает ключ {@code null}, поэтому методы стратегии
+ * всегда получают ненулевые аргументы. Как и для {@code equals}/{@code hashCode},
+ * эквивалентные ключи должны иметь одинаковый хэш.
+ *
+ * <p>Методы {@code get}, {@code containsKey} и {@code remove} принимают
+ * {@code Object}, поэтому стратегия может получить объект чужого типа.
+ * Стандартные стратегии считают такой объект неэквивалентным любому ключу
+ * и хэшируют его через {@code hashCode()}.
+ *
+ * @param <T> тип сравниваемых ключей
+ *
+ * @see CustomHashMap#CustomHashMap(int, float, Equivalence)
+ */
+public interface Equivalence<T> {
+    /**
+     * @return {@code true} если ключи эквивалентны.
+     */
+    boolean equivalent(T a, T b);
+    /**
+     * @return хэш ключа, согласованный с {@link #equivalent}.
+     */
+    int hash(T t);
+    /**
+     * @return стратегия, использующая {@code equals} и {@code hashCode}.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Equivalence<T> equality() {
+        return (Equivalence<T>) Standard.EQUALITY;
+    }
+    /**
+     * @return стратегия, сравнивающая ключи по ссылке, как {@link java.util.IdentityHashMap}.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Equivalence<T> identity() {
+        return (Equivalence<T>) Standard.IDENTITY;
+    }
+    /**
+     * @return стратегия, сравнивающая массивы байтов по содержимому.
+     */
+    @SuppressWarnings("unchecked")
+    static Equivalence<byte[]> byteArrays() {
+        return (Equivalence<byte[]>) (Equivalence<?>) Standard.BYTE_ARRAYS;
+    }
+    /**
+     * @return стратегия, сравнивающая последовательности символов по содержимому.
+     * Хэш совпадает с {@link String#hashCode()}, поэтому ключи {@code String}
+     * и {@code StringBuilder} с одинаковым содержимым взаимозаменяемы.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends CharSequence> Equivalence<T> charSequences() {
+        return (Equivalence<T>) (Equivalence<?>) Standard.CHAR_SEQUENCES;
+    }
+
+    /**
+     * Стандартные стратегии.
+     */
+    enum Standard implements Equivalence<Object> {
+        EQUALITY {
+            public boolean equivalent(Object a, Object b) { return a.equals(b); }
+            public int hash(Object t)                    { return t.hashCode(); }
+        },
+        IDENTITY {
+            public boolean equivalent(Object a, Object b) { return a == b; }
+            public int hash(Object t)                    { return System.identityHashCode(t); }
+        },
+        BYTE_ARRAYS {
+            public boolean equivalent(Object a, Object b) {
+                return a instanceof byte[] x && b instanceof byte[] y && Arrays.equals(x, y);
+            }
+
+            public int hash(Object t) {
+                return t instanceof byte[] bytes ? Arrays.hashCode(bytes) : t.hashCode();
+            }
+        },
+        CHAR_SEQUENCES {
+            public boolean equivalent(Object a, Object b) {
+                return a instanceof CharSequence x && b instanceof CharSequence y &&
+                        CharSequence.compare(x, y) == 0;
+            }
+
+            public int hash(Object t) {
+                if (!(t instanceof CharSequence cs) || t instanceof String) // хэш строки кэшируется
+                    return t.hashCode();
+                int h = 0;
+                for (int i = 0, n = cs.length(); i < n; i++)
+                    h = 31 * h + cs.charAt(i);
+                return h;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example;
+
+import java.util.*;
+
+/**
+ * Вариация {@link CustomHashMap} с упорядоченным вторичным индексом
+ * по ключам. Кроме поиска по ключу, позволяет перебирать элементы
+ * из диапазона ключей или, для строковых ключей, с заданным префиксом
+ * ({@link #prefix}) за O(log n + k), а не обходом всей таблицы.
+ *
+ * <p>Индекс - красно-черное дерево {@link TreeMap}, которое ссылается
+ * на те же элементы {@link Node}, что и хэш таблица, и обновляется при
+ * каждом добавлении и удалении ключа. Ключ {@code null} в индекс не попадает.
+ *
+ * <p>Порядок ключей задается их {@link Comparable#compareTo}, который должен
+ * быть согласован с {@code equals}. Итераторы диапазонов не поддерживают
+ * удаление и становятся недействительными после изменения набора ключей.
+ *
+ * @param <K> тип ключа, поддерживаемого этой таблицей
+ * @param <V> тип сопоставимых значений
+ *
+ * @see TreeMap
+ * @see CustomHashMap
+ */
+public class IndexedCustomHashMap<K extends Comparable<? super K>,V> extends CustomHashMap<K,V> {
+    /**
+     * Упорядоченный индекс: ключ - элемент хэш таблицы.
+     */
+    final TreeMap<K,CustomHashMap.Node<K,V>> index = new TreeMap<>();
+    /**
+     * Создает пустую {@code IndexedCustomHashMap} с указанной начальной емкостью
+     * и коэффициентом загрузки.
+     *
+     * @param  initialCapacity начальная емкость
+     * @param  loadFactor      коэффициент загрузки
+     * @throws IllegalArgumentException если начальная емкость отрицательная
+     * или коэффициент загрузки не положительный.
+     */
+    public IndexedCustomHashMap(int initialCapacity, float loadFactor) {
+        super(initialCapacity, loadFactor);
+    }
+    /**
+     * Создает пустую {@code IndexedCustomHashMap} с заданной начальной емкостью
+     * и со значением коэффициента загрузки по умолчанию (0.75).
+     *
+     * @param  initialCapacity начальная емкость
+     * @throws IllegalArgumentException если начальная емкость отрицательная.
+     */
+    public IndexedCustomHashMap(int initialCapacity) {
+        super(initialCapacity);
+    }
+    /**
+     * Создает пустую {@code IndexedCustomHashMap} со значением начальной емкости
+     * по умолчанию (16) и со значением коэффициента загрузки (0.75).
+     */
+    public IndexedCustomHashMap() {
+        super();
+    }
+    /**
+     * Возвращает элементы, ключи которых лежат в диапазоне
+     * [{@code fromKey}, {@code toKey}), в порядке возрастания ключей.
+     *
+     * @param fromKey нижняя граница, включительно
+     * @param toKey верхняя граница, не включительно
+     * @return итератор по элементам таблицы
+     * @throws IllegalArgumentException если {@code fromKey} больше {@code toKey}
+     * @throws NullPointerException если одна из границ равна null
+     */
+    public Iterator<Map.Entry<K,V>> range(K fromKey, K toKey) {
+        return iterator(index.subMap(fromKey, true, toKey, false));
+    }
+    /**
+     * Возвращает элементы таблицы со строковыми ключами, которые начинаются
+     * с указанного префикса, в порядке возрастания ключей.
+     *
+     * @param map таблица со строковыми ключами
+     * @param prefix префикс
+     * @param <V> тип значения
+     * @return итератор по элементам таблицы
+     * @throws NullPointerException если префикс равен null
+     */
+    public static <V> Iterator<Map.Entry<String,V>> prefix(IndexedCustomHashMap<String,V> map, String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) // такой символ нельзя увеличить
+            end--;
+        if (end == 0)
+            return iterator(map.index.tailMap(prefix, true));
+        String upper = prefix.substring(0, end - 1) + (char)(prefix.charAt(end - 1) + 1);
+        return iterator(map.index.subMap(prefix, true, upper, false));
+    }
+
+    static <K,V> Iterator<Map.Entry<K,V>> iterator(SortedMap<K,CustomHashMap.Node<K,V>> range) {
+        return Collections.<Map.Entry<K,V>>unmodifiableCollection(range.values()).iterator();
+    }
+
+    @Override
+    CustomHashMap.Node<K,V> newNode(int hash, K key, V value, CustomHashMap.Node<K,V> next) {
+        CustomHashMap.Node<K,V> e = super.newNode(hash, key, value, next);
+        if (key != null)
+            index.put(key, e);
+        return e;
+    }
+
+    @Override
+    void afterNodeRemoval(CustomHashMap.Node<K,V> e) {
+        if (e.key != null)
+            index.remove(e.key);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        index.clear();
+    }
+}
@@ -0,0 +1,327 @@
+package org.example;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Вариация {@link CustomHashMap}, которая может хранить ключи и значения через
+ * {@link WeakReference} или {@link SoftReference}. Когда сборщик мусора
+ * очищает ключ или значение, соответствующий элемент перестает быть видимым
+ * и удаляется из таблицы без полного обхода.
+ *
+ * <p>Все ссылки регистрируются в общей {@link ReferenceQueue}. Устаревшие
+ * элементы удаляются постепенно: очередь опрашивается при поиске, добавлении,
+ * удалении и изменении размера таблицы, а также при вызове {@link #size()}.
+ * Поэтому {@link #size()} может уменьшиться между вызовами без явного удаления.
+ *
+ * <p>Ключ {@code null} и значения {@code null} всегда хранятся сильной ссылкой.
+ *
+ * <p>Со стратегией {@link Equivalence#identity()} ключи сравниваются по ссылке
+ * ({@code ==}), как в {@link IdentityHashMap}. Это удобно для слабых ключей,
+ * у которых {@code equals} переопределен: иначе элемент нельзя найти после того,
+ * как исходный объект ключа стал недостижим.
+ *
+ * @param <K> тип ключа, поддерживаемого этой таблицей
+ * @param <V> тип сопоставимых значений
+ *
+ * @see WeakHashMap
+ * @see CustomHashMap
+ */
+public class ReferenceCustomHashMap<K,V> extends CustomHashMap<K,V> {
+    /**
+     * Тип ссылки, через которую элемент таблицы удерживает ключ или значение.
+     */
+    public enum Strength {
+        /**
+         * Обычная ссылка, объект не собирается, пока он в таблице.
+         */
+        STRONG,
+        /**
+         * {@link WeakReference}: объект собирается, как только на него
+         * не останется сильных ссылок.
+         */
+        WEAK,
+        /**
+         * {@link SoftReference}: объект собирается только при нехватке памяти.
+         */
+        SOFT
+    }
+
+    /**
+     * Ссылка, знающая элемент таблицы, которому она принадлежит.
+     */
+    interface NodeReference {
+        ReferenceNode<?,?> node();
+    }
+
+    static final class WeakNodeReference<T> extends WeakReference<T> implements NodeReference {
+        final ReferenceNode<?,?> node;
+
+        WeakNodeReference(T referent, ReferenceQueue<? super T> queue, ReferenceNode<?,?> node) {
+            super(referent, queue);
+            this.node = node;
+        }
+
+        public ReferenceNode<?,?> node() { return node; }
+    }
+
+    static final class SoftNodeReference<T> extends SoftReference<T> implements NodeReference {
+        final ReferenceNode<?,?> node;
+
+        SoftNodeReference(T referent, ReferenceQueue<? super T> queue, ReferenceNode<?,?> node) {
+            super(referent, queue);
+            this.node = node;
+        }
+
+        public ReferenceNode<?,?> node() { return node; }
+    }
+
+    /**
+     * Элемент таблицы, хранящий ключ и значение либо в полях {@link Node},
+     * либо через ссылку, зарегистрированную в очереди таблицы.
+     */
+    static final class ReferenceNode<K,V> extends CustomHashMap.Node<K,V> {
+        final ReferenceCustomHashMap<K,V> map;
+        /**
+         * Ссылка на ключ или {@code null}, если ключ хранится в {@link Node#key}.
+         */
+        final Reference<K> keyRef;
+        /**
+         * Ссылка на значение или {@code null}, если значение хранится в {@link Node#value}.
+         */
+        Reference<V> valueRef;
+
+        ReferenceNode(int hash, K key, V value, CustomHashMap.Node<K,V> next,
+                      ReferenceCustomHashMap<K,V> map) {
+            super(hash, key == null || map.keyStrength == Strength.STRONG ? key : null, null, next);
+            this.map = map;
+            this.keyRef = this.key != null || key == null ?
+                    null : map.newReference(map.keyStrength, key, this);
+            setValue(value);
+        }
+
+        public K getKey() {
+            return keyRef == null ? key : keyRef.get();
+        }
+
+        public V getValue() {
+            return valueRef == null ? value : valueRef.get();
+        }
+
+        public V setValue(V newValue) {
+            V oldValue = getValue();
+            if (newValue == null || map.valueStrength == Strength.STRONG) {
+                value = newValue;
+                valueRef = null;
+            } else {
+                value = null;
+                valueRef = map.newReference(map.valueStrength, newValue, this);
+            }
+            return oldValue;
+        }
+
+        /**
+         * @return {@code true} если ключ или значение уже очищены сборщиком мусора.
+         */
+        boolean isStale() {
+            return (keyRef != null && keyRef.get() == null) ||
+                    (valueRef != null && valueRef.get() == null);
+        }
+    }
+
+    /**
+     * Тип ссылки на ключи.
+     */
+    final Strength keyStrength;
+    /**
+     * Тип ссылки на значения.
+     */
+    final Strength valueStrength;
+    /**
+     * Очередь, в которую попадают очищенные ссылки на ключи и значения.
+     */
+    final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    /**
+     * Создает пустую {@code ReferenceCustomHashMap} с указанной начальной емкостью,
+     * коэффициентом загрузки и типами ссылок.
+     *
+     * @param  initialCapacity начальная емкость
+     * @param  loadFactor      коэффициент загрузки
+     * @param  keyStrength     тип ссылки на ключи
+     * @param  valueStrength   тип ссылки на значения
+     * @param  equivalence     стратегия сравнения и хэширования ключей
+     * @throws IllegalArgumentException если начальная емкость отрицательная
+     * или коэффициент загрузки не положительный.
+     * @throws NullPointerException если один из типов ссылок или стратегия равны null
+     */
+    public ReferenceCustomHashMap(int initialCapacity, float loadFactor,
+                                  Strength keyStrength, Strength valueStrength,
+                                  Equivalence<? super K> equivalence) {
+        super(initialCapacity, loadFactor, equivalence);
+        this.keyStrength = Objects.requireNonNull(keyStrength);
+        this.valueStrength = Objects.requireNonNull(valueStrength);
+    }
+    /**
+     * Создает пустую {@code ReferenceCustomHashMap} со значениями начальной
+     * емкости (16) и коэффициента загрузки (0.75) по умолчанию. Ключи
+     * сравниваются через {@code equals}.
+     *
+     * @param  keyStrength     тип ссылки на ключи
+     * @param  valueStrength   тип ссылки на значения
+     * @throws NullPointerException если один из типов ссылок равен null
+     */
+    public ReferenceCustomHashMap(Strength keyStrength, Strength valueStrength) {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, keyStrength, valueStrength,
+                Equivalence.equality());
+    }
+    /**
+     * Удаляет из таблицы элементы, ключ или значение которых
+     * были очищены сборщиком мусора.
+     */
+    void expungeStaleEntries() {
+        for (Reference<?> r; (r = queue.poll()) != null; ) {
+            ReferenceNode<?,?> node = ((NodeReference) r).node();
+            if (node.keyRef == r || node.valueRef == r) // значение могло быть заменено
+                unlinkNode(node);
+        }
+    }
+    /**
+     * Удаляет указанный элемент из его ячейки, если он все еще в таблице.
+     */
+    void unlinkNode(CustomHashMap.Node<?,?> node) {
+        CustomHashMap.Node<K,V>[] tab; CustomHashMap.Node<K,V> p, prev = null; int index;
+        if ((tab = table) == null)
+            return;
+        for (p = tab[index = (tab.length - 1) & node.hash]; p != null; prev = p, p = p.next) {
+            if (p == node) {
+                if (prev == null)
+                    tab[index] = p.next;
+                else
+                    prev.next = p.next;
+                --size;
+                afterNodeRemoval(p);
+                return;
+            }
+        }
+    }
+    /**
+     * Создает ссылку указанного типа, зарегистрированную в очереди таблицы.
+     */
+    <T> Reference<T> newReference(Strength strength, T referent, ReferenceNode<K,V> node) {
+        return strength == Strength.SOFT ?
+                new SoftNodeReference<>(referent, queue, node) :
+                new WeakNodeReference<>(referent, queue, node);
+    }
+
+    @Override
+    boolean keyMatches(CustomHashMap.Node<K,V> e, Object key) {
+        ReferenceNode<K,V> n = (ReferenceNode<K,V>) e;
+        K k = n.getKey();
+        if (k == null && n.keyRef != null) // ключ уже собран
+            return false;
+        return k == key || (key != null && k != null && equivalence.equivalent(key, k));
+    }
+
+    @Override
+    CustomHashMap.Node<K,V> getNode(int hash, Object key) {
+        expungeStaleEntries();
+        CustomHashMap.Node<K,V> e = super.getNode(hash, key);
+        return e == null || !isLive(e) ? null : e;
+    }
+
+    @Override
+    V putVal(int hash, K key, V value) {
+        expungeStaleEntries();
+        return super.putVal(hash, key, value);
+    }
+
+    @Override
+    CustomHashMap.Node<K,V>[] resize() {
+        expungeStaleEntries();
+        return super.resize();
+    }
+
+    @Override
+    CustomHashMap.Node<K,V> removeNode(int hash, Object key) {
+        expungeStaleEntries();
+        return super.removeNode(hash, key);
+    }
+
+    @Override
+    boolean isLive(CustomHashMap.Node<K,V> e) {
+        return !((ReferenceNode<K,V>) e).isStale();
+    }
+
+    @Override
+    CustomHashMap.Node<K,V> newNode(int hash, K key, V value, CustomHashMap.Node<K,V> next) {
+        return new ReferenceNode<>(hash, key, value, next, this);
+    }
+
+    @Override
+    public int size() {
+        expungeStaleEntries();
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        while (queue.poll() != null) // элементы уже удалены, ссылки больше не нужны
+            ;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Map.Entry<K,V> e : entrySet()) {
+            V v;
+            if ((v = e.getValue()) == value || (value != null && value.equals(v)))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<Map.Entry<K,V>> entries = entrySet();
+        Set<K> keySet = newSet(entries.size());
+        for (Map.Entry<K,V> e : entries)
+            keySet.add(e.getKey());
+        return keySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        Set<Map.Entry<K,V>> entries = entrySet();
+        Collection<V> values = new ArrayList<>(entries.size());
+        for (Map.Entry<K,V> e : entries)
+            values.add(e.getValue());
+        return values;
+    }
+    /**
+     * @return Set, состоящий из элементов таблицы, ключи и значения
+     * которых еще не очищены сборщиком мусора.
+     */
+    @Override
+    public Set<Map.Entry<K,V>> entrySet() {
+        expungeStaleEntries();
+        Set<Map.Entry<K,V>> entries = newSet(size);
+        CustomHashMap.Node<K,V>[] tab;
+        if ((tab = table) != null) {
+            for (CustomHashMap.Node<K,V> e : tab) {
+                for (; e != null; e = e.next) {
+                    if (isLive(e))
+                        entries.add(e);
+                }
+            }
+        }
+        return entries;
+    }
+}
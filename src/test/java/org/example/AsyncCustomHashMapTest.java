@@ -0,0 +1,147 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncCustomHashMapTest {
+    private ExecutorService executor;
+    private AsyncCustomHashMap<Integer, String> asyncMap;
+    private CountDownLatch release;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        asyncMap = new AsyncCustomHashMap<>(executor);
+        release = new CountDownLatch(1);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Заглушка хранилища: ждет {@link #release} и считает вызовы.
+     */
+    private String load(Integer key) {
+        loads.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return "v" + key;
+    }
+
+    @Test
+    void get_or_load_present() {
+        asyncMap.put(1, "one");
+        assertEquals("one", asyncMap.getOrLoad(1, this::load).join());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void get_or_load_coalesces_misses() throws InterruptedException {
+        int callers = 100;
+        List<CompletableFuture<String>> futures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            executor.execute(() -> {
+                futures.add(asyncMap.getOrLoad(1, this::load));
+                started.countDown();
+            });
+        }
+        started.await();
+        release.countDown();
+        futures.forEach(f -> assertEquals("v1", f.join()));
+        assertEquals(1, loads.get());
+        assertEquals("v1", asyncMap.get(1));
+    }
+
+    @Test
+    void get_or_load_failure_not_cached() {
+        Function<Integer, String> failing = key -> {
+            throw new IllegalStateException("store is down");
+        };
+        var exception = assertThrows(CompletionException.class, () -> asyncMap.getOrLoad(1, failing).join());
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        release.countDown();
+        assertEquals("v1", asyncMap.getOrLoad(1, this::load).join());
+    }
+
+    @Test
+    void put_during_load_wins() {
+        var future = asyncMap.getOrLoad(1, this::load);
+        asyncMap.put(1, "explicit");
+        release.countDown();
+        assertEquals("v1", future.join());
+        assertEquals("explicit", asyncMap.get(1));
+    }
+
+    @Test
+    void get_all_or_load_batches_misses() {
+        asyncMap.put(1, "one");
+        var inFlight = asyncMap.getOrLoad(2, this::load);
+        List<Set<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        var all = asyncMap.getAllOrLoad(List.of(1, 2, 3, 4, 4), keys -> {
+            batches.add(new HashSet<>(keys));
+            Map<Integer, String> loaded = new HashMap<>();
+            keys.forEach(key -> loaded.put(key, "v" + key));
+            return loaded;
+        });
+        release.countDown();
+        assertEquals(Map.of(1, "one", 2, "v2", 3, "v3", 4, "v4"), all.join());
+        assertEquals("v2", inFlight.join());
+        assertEquals(List.of(Set.of(3, 4)), batches);
+        assertEquals(4, asyncMap.size());
+    }
+
+    @Test
+    void get_all_or_load_absent_keys_not_stored() {
+        var all = asyncMap.getAllOrLoad(List.of(1, 2), keys -> Map.of(1, "v1"));
+        Map<Integer, String> expected = new HashMap<>();
+        expected.put(1, "v1");
+        expected.put(2, null);
+        assertEquals(expected, all.join());
+        assertEquals(1, asyncMap.size());
+    }
+
+    @Test
+    void get_all_or_load_null_result_fails() throws Exception {
+        var all = asyncMap.getAllOrLoad(List.of(1, 2), keys -> null);
+        var exception = assertThrows(ExecutionException.class, () -> all.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(NullPointerException.class, exception.getCause());
+        assertEquals("x", asyncMap.getOrLoad(1, key -> "x").get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void get_all_or_load_lookup_failure_releases_keys() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        keys.add(1);
+        keys.add(null);
+        var all = asyncMap.getAllOrLoad(keys, misses -> Map.of(1, "v1")); // Map.of не ищет null
+        assertThrows(ExecutionException.class, () -> all.get(2, TimeUnit.SECONDS));
+        assertEquals(0, asyncMap.size());
+        assertEquals("x", asyncMap.getOrLoad(1, key -> "x").get(2, TimeUnit.SECONDS));
+        assertEquals("y", asyncMap.getOrLoad(null, key -> "y").get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejected_load_completes_exceptionally() {
+        executor.shutdown();
+        var future = asyncMap.getOrLoad(1, this::load);
+        assertThrows(CompletionException.class, future::join);
+        assertNull(asyncMap.get(1));
+    }
+}
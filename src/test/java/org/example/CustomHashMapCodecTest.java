@@ -0,0 +1,145 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomHashMapCodecTest {
+    private static final CustomHashMapCodec<Integer, String> CODEC =
+            new CustomHashMapCodec<>(CustomHashMapCodec.INTEGERS, CustomHashMapCodec.STRINGS);
+
+    private static <K, V> byte[] write(CustomHashMapCodec<K, V> codec, CustomHashMap<K, V> map) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(map, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static <K, V> CustomHashMap<K, V> read(CustomHashMapCodec<K, V> codec, byte[] bytes) throws IOException {
+        return codec.read(Channels.newChannel(new ByteArrayInputStream(bytes)), CustomHashMapCodec.newBuffer());
+    }
+
+    @Test
+    void round_trip() throws IOException {
+        CustomHashMap<Integer, String> map = new CustomHashMap<>(16, 0.5f);
+        IntStream.range(0, 1000).forEach(i -> map.put(i, "значение " + i));
+        map.put(null, "null key");
+        map.put(-1, null);
+        CustomHashMap<Integer, String> copy = read(CODEC, write(CODEC, map));
+        assertEquals(map.size(), copy.size());
+        assertEquals(0.5f, copy.loadFactor);
+        IntStream.range(0, 1000).forEach(i -> assertEquals("значение " + i, copy.get(i)));
+        assertEquals("null key", copy.get(null));
+        assertTrue(copy.containsKey(-1));
+        assertNull(copy.get(-1));
+    }
+
+    @Test
+    void read_presized() throws IOException {
+        CustomHashMap<Integer, String> map = new CustomHashMap<>();
+        IntStream.range(0, 13).forEach(i -> map.put(i, "v"));
+        CustomHashMap<Integer, String> copy = read(CODEC, write(CODEC, map));
+        assertEquals(32, copy.table.length);
+        assertTrue(copy.threshold >= copy.size());
+    }
+
+    @Test
+    void round_trip_empty() throws IOException {
+        CustomHashMap<Integer, String> copy = read(CODEC, write(CODEC, new CustomHashMap<>()));
+        assertTrue(copy.isEmpty());
+    }
+
+    @Test
+    void byte_array_keys_with_equivalence() throws IOException {
+        var codec = new CustomHashMapCodec<>(CustomHashMapCodec.BYTE_ARRAYS, CustomHashMapCodec.LONGS,
+                Equivalence.byteArrays());
+        CustomHashMap<byte[], Long> map = new CustomHashMap<>(16, 0.75f, Equivalence.byteArrays());
+        map.put(new byte[]{1, 2}, 12L);
+        CustomHashMap<byte[], Long> copy = read(codec, write(codec, map));
+        assertEquals(12L, copy.get(new byte[]{1, 2}));
+    }
+
+    @Test
+    void read_illegal_size() {
+        byte[] bytes = {-1, -1, -1, -1, 0, 0, 0, 0};
+        Exception exception = assertThrows(StreamCorruptedException.class, () -> read(CODEC, bytes));
+        assertEquals("Illegal size: -1", exception.getMessage());
+    }
+
+    @Test
+    void read_huge_size_without_entries() {
+        byte[] bytes = {0x7f, -1, -1, -1, 0x3f, 0x40, 0, 0}; // Integer.MAX_VALUE, 0.75f
+        assertThrows(EOFException.class, () -> read(CODEC, bytes));
+    }
+
+    @Test
+    void read_tiny_load_factor() {
+        byte[] bytes = ByteBuffer.allocate(9).putInt(1).putFloat(1e-30f)
+                .put((byte) (CustomHashMapCodec.NULL_KEY | CustomHashMapCodec.NULL_VALUE)).array();
+        Exception exception = assertThrows(StreamCorruptedException.class, () -> read(CODEC, bytes));
+        assertEquals("Illegal load factor: 1.0E-30", exception.getMessage());
+    }
+
+    @Test
+    void read_illegal_flags() {
+        byte[] bytes = ByteBuffer.allocate(9).putInt(1).putFloat(0.75f).put((byte) 4).array();
+        Exception exception = assertThrows(StreamCorruptedException.class, () -> read(CODEC, bytes));
+        assertEquals("Illegal flags: 4", exception.getMessage());
+    }
+
+    @Test
+    void read_consecutive_maps_from_channel() throws IOException {
+        CustomHashMap<Integer, String> first = new CustomHashMap<>();
+        IntStream.range(0, 3000).forEach(i -> first.put(i, "v" + i));
+        CustomHashMap<Integer, String> second = new CustomHashMap<>();
+        second.put(1, "one");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CODEC.write(first, Channels.newChannel(bytes));
+        CODEC.write(second, Channels.newChannel(bytes));
+        bytes.write(42);
+        var channel = Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()));
+        ByteBuffer buffer = CustomHashMapCodec.newBuffer();
+        assertEquals(3000, CODEC.read(channel, buffer).size());
+        assertEquals("one", CODEC.read(channel, buffer).get(1));
+        assertEquals(1, buffer.remaining());
+        assertEquals(42, buffer.get());
+    }
+
+    @Test
+    void read_larger_than_presize() throws IOException {
+        int size = CustomHashMapCodec.MAX_PRESIZE + 1;
+        CustomHashMap<Integer, String> map = CustomHashMap.withExpectedSize(size);
+        IntStream.range(0, size).forEach(i -> map.put(i, "v"));
+        CustomHashMap<Integer, String> copy = read(CODEC, write(CODEC, map));
+        assertEquals(size, copy.size());
+        assertEquals("v", copy.get(size - 1));
+    }
+
+    @Test
+    void stale_reference_entries_skipped() throws IOException {
+        var map = new ReferenceCustomHashMap<Integer, String>(ReferenceCustomHashMap.Strength.WEAK,
+                ReferenceCustomHashMap.Strength.STRONG);
+        Integer key = 1000;
+        map.put(key, "v");
+        map.put(2000, "w");
+        ((ReferenceCustomHashMap.ReferenceNode<Integer, String>) map.getNode(key)).keyRef.clear();
+        CustomHashMap<Integer, String> copy = read(CODEC, write(CODEC, map));
+        assertEquals(1, copy.size());
+        assertFalse(copy.containsKey(null));
+        assertEquals("w", copy.get(2000));
+    }
+
+    @Test
+    void read_truncated() throws IOException {
+        CustomHashMap<Integer, String> map = new CustomHashMap<>();
+        map.put(1, "one");
+        byte[] bytes = write(CODEC, map);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(EOFException.class, () -> read(CODEC, truncated));
+    }
+}
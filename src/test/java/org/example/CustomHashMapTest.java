@@ -241,4 +241,143 @@ class CustomHashMapTest {
         var keys = testHashMap.keySet();
         assertEquals(13, keys.size());
     }
+
+    @Test
+    void byte_array_equivalence() {
+        CustomHashMap<byte[], Integer> map = new CustomHashMap<>(16, 0.75f, Equivalence.byteArrays());
+        map.put(new byte[]{1, 2, 3}, 1);
+        assertEquals(1, map.get(new byte[]{1, 2, 3}));
+        assertNull(map.get(new byte[]{1, 2}));
+        assertNull(map.get("x"));
+        assertFalse(map.containsKey(1));
+        assertNull(map.remove("x"));
+        assertEquals(1, map.remove(new byte[]{1, 2, 3}));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void char_sequence_equivalence() {
+        CustomHashMap<CharSequence, Integer> map = new CustomHashMap<>(16, 0.75f, Equivalence.charSequences());
+        map.put("key", 1);
+        assertEquals(1, map.get(new StringBuilder("key")));
+        assertNull(map.get(new byte[0]));
+        assertFalse(map.containsKey(1));
+        assertEquals(map.hashOf("key"), map.hashOf(new StringBuilder("key")));
+        map.put(new StringBuilder("key"), 2);
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void identity_equivalence() {
+        CustomHashMap<String, Integer> map = new CustomHashMap<>(16, 0.75f, Equivalence.identity());
+        String key = new String("key");
+        map.put(key, 1);
+        map.put(new String("key"), 2);
+        assertEquals(2, map.size());
+        assertEquals(2, map.keySet().size());
+        assertEquals(1, map.get(key));
+    }
+
+    @Test
+    void finer_than_equals_equivalence_views() {
+        Equivalence<List<Integer>> sameClass = new Equivalence<>() {
+            public boolean equivalent(List<Integer> a, List<Integer> b) {
+                return a.getClass() == b.getClass() && a.equals(b);
+            }
+
+            public int hash(List<Integer> list) {
+                return list.hashCode();
+            }
+        };
+        CustomHashMap<List<Integer>, Integer> map = new CustomHashMap<>(16, 0.75f, sameClass);
+        map.put(List.of(1), 1);
+        map.put(new ArrayList<>(List.of(1)), 2);
+        assertEquals(2, map.size());
+        assertEquals(2, map.keySet().size());
+        assertEquals(2, map.entrySet().size());
+    }
+
+    @Test
+    void precomputed_hash_across_maps() {
+        CustomHashMap<Integer, Integer> other = new CustomHashMap<>();
+        int hash = testHashMap.hashOf(1);
+        other.put(1, hash, 5);
+        assertEquals(VALUE, testHashMap.get(1, hash));
+        assertTrue(other.containsKey(1, hash));
+        assertEquals(5, other.get(1));
+        assertEquals(5, other.remove(1, hash));
+        assertFalse(other.containsKey(1));
+    }
+
+    @Test
+    void precomputed_hash_skips_hash_code() {
+        int[] calls = new int[1];
+        Object key = new Object() {
+            @Override
+            public int hashCode() {
+                calls[0]++;
+                return 42;
+            }
+        };
+        CustomHashMap<Object, Integer> map = new CustomHashMap<>();
+        int hash = map.hashOf(key);
+        map.put(key, hash, 1);
+        map.get(key, hash);
+        map.remove(key, hash);
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    void with_expected_size_never_resizes() {
+        int expected = 1000;
+        CustomHashMap<Integer, Integer> map = CustomHashMap.withExpectedSize(expected);
+        map.put(0, 0);
+        var table = map.table;
+        IntStream.range(1, expected).forEach(i -> map.put(i, i));
+        assertSame(table, map.table);
+        assertEquals(2048, map.table.length);
+    }
+
+    @Test
+    void with_expected_size_negative() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> CustomHashMap.withExpectedSize(-1));
+        assertEquals("Negative number of elements: " + -1, exception.getMessage());
+    }
+
+    @Test
+    void ensure_capacity_grows_once() {
+        testHashMap.ensureCapacity(10000);
+        var table = testHashMap.table;
+        assertEquals(16384, table.length);
+        assertEquals(12288, testHashMap.threshold);
+        for (Integer key : KEYS) {
+            assertEquals(VALUE, testHashMap.get(key));
+        }
+        IntStream.range(0, 10000 - testHashMap.size()).forEach(i -> testHashMap.put(-i - 1, i));
+        assertSame(table, testHashMap.table);
+    }
+
+    @Test
+    void ensure_capacity_before_first_put() {
+        CustomHashMap<Integer, Integer> map = new CustomHashMap<>();
+        map.ensureCapacity(100);
+        map.put(1, 1);
+        assertEquals(256, map.table.length);
+    }
+
+    @Test
+    void ensure_capacity_smaller_ignored() {
+        var table = testHashMap.table;
+        testHashMap.ensureCapacity(1);
+        assertSame(table, testHashMap.table);
+    }
+
+    @Test
+    void estimate_footprint() {
+        assertEquals(32, CustomHashMap.estimateFootprint(0, 0.75f, Integer.class));
+        // таблица + массив из 16 ссылок + 12 элементов по 32 байта + 12 Integer по 16 байт
+        assertEquals(32 + 80 + 12 * 32 + 12 * 16, CustomHashMap.estimateFootprint(12, 0.75f, Integer.class));
+        assertEquals(32 + 80 + 12 * 32, CustomHashMap.estimateFootprint(12, 0.75f, String.class));
+        assertThrows(IllegalArgumentException.class, () -> CustomHashMap.estimateFootprint(1, 0, null));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedCustomHashMapTest {
+    private IndexedCustomHashMap<String, Integer> testHashMap;
+
+    @BeforeEach
+    void setUp() {
+        testHashMap = new IndexedCustomHashMap<>();
+        String[] keys = {"apple", "apricot", "banana", "blueberry", "cherry", "a\uffff", "a\uffffz"};
+        for (int i = 0; i < keys.length; i++) {
+            testHashMap.put(keys[i], i);
+        }
+    }
+
+    private static <K> List<K> keys(Iterator<? extends Map.Entry<K, ?>> iterator) {
+        List<K> keys = new ArrayList<>();
+        iterator.forEachRemaining(e -> keys.add(e.getKey()));
+        return keys;
+    }
+
+    @Test
+    void range() {
+        assertEquals(List.of("banana", "blueberry"), keys(testHashMap.range("b", "c")));
+        assertEquals(List.of(), keys(testHashMap.range("d", "z")));
+    }
+
+    @Test
+    void range_returns_table_nodes() {
+        Map.Entry<String, Integer> entry = testHashMap.range("cherry", "d").next();
+        assertSame(testHashMap.getNode("cherry"), entry);
+    }
+
+    @Test
+    void prefix() {
+        assertEquals(List.of("apple", "apricot"), keys(IndexedCustomHashMap.prefix(testHashMap, "ap")));
+        assertEquals(List.of("a\uffff", "a\uffffz"), keys(IndexedCustomHashMap.prefix(testHashMap, "a\uffff")));
+        assertEquals(7, keys(IndexedCustomHashMap.prefix(testHashMap, "")).size());
+    }
+
+    @Test
+    void index_follows_put_and_remove() {
+        testHashMap.put("banana", 100);
+        testHashMap.put("bilberry", 8);
+        testHashMap.remove("blueberry");
+        Iterator<Map.Entry<String, Integer>> range = testHashMap.range("b", "c");
+        assertEquals(100, range.next().getValue());
+        assertEquals("bilberry", range.next().getKey());
+        assertFalse(range.hasNext());
+        assertEquals(testHashMap.size(), testHashMap.index.size());
+    }
+
+    @Test
+    void null_key_not_indexed() {
+        testHashMap.put(null, 0);
+        assertEquals(0, testHashMap.get(null));
+        assertEquals(7, testHashMap.index.size());
+        testHashMap.remove(null);
+        assertEquals(7, testHashMap.index.size());
+    }
+
+    @Test
+    void clear() {
+        testHashMap.clear();
+        assertFalse(testHashMap.range("a", "z").hasNext());
+    }
+
+    @Test
+    void range_iterator_unmodifiable() {
+        Iterator<Map.Entry<String, Integer>> range = testHashMap.range("a", "z");
+        range.next();
+        assertThrows(UnsupportedOperationException.class, range::remove);
+    }
+
+    @Test
+    void range_many_values() {
+        IndexedCustomHashMap<Integer, Integer> map = new IndexedCustomHashMap<>();
+        IntStream.range(0, 100000).forEach(i -> map.put(i, i));
+        IntStream.range(0, 100000).filter(i -> i % 2 == 0).forEach(map::remove);
+        List<Integer> keys = keys(map.range(1000, 1010));
+        assertEquals(List.of(1001, 1003, 1005, 1007, 1009), keys);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example;
+
+import org.example.ReferenceCustomHashMap.ReferenceNode;
+import org.example.ReferenceCustomHashMap.Strength;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceCustomHashMapTest {
+
+    private static ReferenceNode<String, String> node(ReferenceCustomHashMap<String, String> map, String key) {
+        return (ReferenceNode<String, String>) map.getNode(key);
+    }
+
+    @Test
+    void weak_key_expunged_when_cleared() {
+        var map = new ReferenceCustomHashMap<String, String>(Strength.WEAK, Strength.STRONG);
+        String key = new String("key");
+        map.put(key, "value");
+        map.put("other", "value");
+        node(map, key).keyRef.enqueue();
+        assertEquals(1, map.size());
+        assertNull(map.get(key));
+        assertEquals("value", map.get("other"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Strength.class, names = {"WEAK", "SOFT"})
+    void reference_value_expunged_when_cleared(Strength strength) {
+        var map = new ReferenceCustomHashMap<String, String>(Strength.STRONG, strength);
+        map.put("key", new String("value"));
+        node(map, "key").valueRef.enqueue();
+        assertFalse(map.containsKey("key"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void cleared_value_not_visible_before_expunge() {
+        var map = new ReferenceCustomHashMap<String, String>(Strength.STRONG, Strength.WEAK);
+        map.put("key", new String("value"));
+        node(map, "key").valueRef.clear();
+        assertNull(map.get("key"));
+        assertFalse(map.containsValue(null));
+        assertTrue(map.entrySet().isEmpty());
+    }
+
+    @Test
+    void replaced_value_reference_ignored() {
+        var map = new ReferenceCustomHashMap<String, String>(Strength.STRONG, Strength.WEAK);
+        String value = new String("new");
+        map.put("key", new String("old"));
+        var oldRef = node(map, "key").valueRef;
+        map.put("key", value);
+        oldRef.enqueue();
+        assertEquals(1, map.size());
+        assertEquals(value, map.get("key"));
+    }
+
+    @Test
+    void reference_node_to_string() {
+        var map = new ReferenceCustomHashMap<String, String>(Strength.WEAK, Strength.SOFT);
+        String key = new String("key");
+        String value = new String("value");
+        map.put(key, value);
+        assertEquals("key=value", node(map, key).toString());
+    }
+
+    @Test
+    void null_key_and_value_held_strongly() {
+        var map = new ReferenceCustomHashMap<String, String>(Strength.WEAK, Strength.WEAK);
+        map.put(null, null);
+        assertTrue(map.containsKey(null));
+        assertNull(node(map, null).keyRef);
+        assertNull(node(map, null).valueRef);
+    }
+
+    @Test
+    void identity_keys() {
+        var map = new ReferenceCustomHashMap<String, String>(16, 0.75f, Strength.WEAK, Strength.STRONG,
+                Equivalence.identity());
+        String first = new String("key");
+        String second = new String("key");
+        map.put(first, "first");
+        map.put(second, "second");
+        assertEquals(2, map.size());
+        assertEquals(2, map.keySet().size());
+        assertEquals("first", map.get(first));
+        assertNull(map.get("key"));
+    }
+
+    @Test
+    void stale_entry_expunged_before_growing() {
+        var map = new ReferenceCustomHashMap<Integer, String>(Strength.STRONG, Strength.WEAK);
+        String value = new String("value");
+        IntStream.range(0, 12).forEach(i -> map.put(i, value));
+        ((ReferenceNode<Integer, String>) map.getNode(0)).valueRef.enqueue();
+        map.put(100, value);
+        assertEquals(12, map.size());
+        assertEquals(16, map.table.length);
+    }
+
+    @Test
+    void strong_references_behave_as_custom_hash_map() {
+        var map = new ReferenceCustomHashMap<Integer, Integer>(Strength.STRONG, Strength.STRONG);
+        int count = 10000;
+        IntStream.range(0, count).forEach(i -> map.put(i, i));
+        IntStream.range(0, count).forEach(i -> assertEquals(i, map.get(i)));
+        IntStream.range(0, count).forEach(map::remove);
+        assertTrue(map.isEmpty());
+    }
+}